@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.config;
+
+import com.eliasnogueira.paymentsystem.tracing.FileSpanExporter;
+import com.eliasnogueira.paymentsystem.tracing.SlowOrFailedTraceSpanProcessor;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.instrumentation.jdbc.datasource.JdbcTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * OpenTelemetry tracing, switched on with {@code payment.tracing.enabled}. When off, a no-op implementation keeps
+ * the instrumented code paths close to free.
+ * <p>
+ * Slow or failed requests are exported, up to {@code payment.tracing.max-kept-per-second} traces; the rest are kept
+ * at {@code payment.tracing.sample-ratio}.
+ * Spans go to a JSON lines file instead of an OTLP collector.
+ */
+@Configuration
+public class TracingConfiguration {
+
+    private static final String ENABLED_PROPERTY = "payment.tracing.enabled";
+
+    @Bean
+    public OpenTelemetry openTelemetry(@Value("${" + ENABLED_PROPERTY + ":false}") boolean enabled,
+                                       @Value("${payment.tracing.sample-ratio:0.01}") double sampleRatio,
+                                       @Value("${payment.tracing.slow-threshold:500ms}") Duration slowThreshold,
+                                       @Value("${payment.tracing.max-pending-traces:10000}") int maxPendingTraces,
+                                       @Value("${payment.tracing.pending-timeout:1m}") Duration pendingTimeout,
+                                       @Value("${payment.tracing.max-kept-per-second:20}") int maxKeptPerSecond,
+                                       @Value("${payment.tracing.file:spans.jsonl}") String file) throws IOException {
+        if (!enabled) {
+            return OpenTelemetry.noop();
+        }
+
+        BatchSpanProcessor exporting = BatchSpanProcessor.builder(new FileSpanExporter(Path.of(file))).build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(
+                        Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "payment-system"))))
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(new SlowOrFailedTraceSpanProcessor(
+                        exporting, slowThreshold, sampleRatio, maxPendingTraces, pendingTimeout, maxKeptPerSecond))
+                .build();
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer("com.eliasnogueira.paymentsystem");
+    }
+
+    /**
+     * Wraps the data source so every JDBC statement gets its own span.
+     */
+    @Bean
+    public static BeanPostProcessor jdbcTracingPostProcessor(ObjectProvider<OpenTelemetry> openTelemetry,
+                                                             Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)) {
+                    return traced(openTelemetry.getObject(), dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Statement spans only: borrowing a pooled connection is not worth a span of its own, and the statements come
+     * from Hibernate with bind parameters, so there are no literals to sanitize.
+     */
+    public static DataSource traced(OpenTelemetry openTelemetry, DataSource dataSource) {
+        return JdbcTelemetry.builder(openTelemetry)
+                .setDataSourceInstrumenterEnabled(false)
+                .setStatementSanitizationEnabled(false)
+                .build()
+                .wrap(dataSource);
+    }
+}
@@ -27,6 +27,8 @@ import com.eliasnogueira.paymentsystem.model.Payment;
 import com.eliasnogueira.paymentsystem.model.PaymentRequest;
 import com.eliasnogueira.paymentsystem.model.PaymentResponse;
 import com.eliasnogueira.paymentsystem.service.PaymentService;
+import com.eliasnogueira.paymentsystem.tracing.Tracing;
+import io.opentelemetry.api.trace.Tracer;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -41,9 +43,13 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private Tracer tracer;
+
     @PostMapping("/request")
     public ResponseEntity<Payment> createPaymentRequest(@Valid @RequestBody PaymentRequest paymentRequest) {
-        Payment payment = paymentService.createPaymentRequest(paymentRequest);
+        Payment payment = Tracing.inSpan(tracer, "PaymentController.createPaymentRequest",
+                () -> paymentService.createPaymentRequest(paymentRequest));
         return ResponseEntity.ok(payment);
     }
 
@@ -52,7 +58,8 @@ public class PaymentController {
             @PathVariable String uniqueId,
             @RequestParam String creditCardNumber,
             @RequestParam BigDecimal amount) {
-        PaymentResponse response = paymentService.processPayment(uniqueId, creditCardNumber, amount);
+        PaymentResponse response = Tracing.inSpan(tracer, "PaymentController.processPayment",
+                () -> paymentService.processPayment(uniqueId, creditCardNumber, amount));
         return ResponseEntity.ok(response);
     }
 }
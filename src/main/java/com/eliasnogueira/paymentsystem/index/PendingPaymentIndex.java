@@ -0,0 +1,287 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap index of unpaid payment requests keyed by a 64-bit hash of their unique ID, so large backlogs of unpaid
+ * requests cost neither heap nor GC time.
+ * <p>
+ * Slots are fixed-size packed records in a single {@link MemorySegment} probed linearly:
+ * <pre>
+ *   0  hash of the unique ID (0 marks an empty slot)
+ *   8  payment id
+ *  16  amount in minor units
+ *  24  timestamp, UTC epoch milliseconds
+ * </pre>
+ * Paid requests are removed with backward-shift deletion, which moves later entries of the probe run back into the
+ * freed slot instead of leaving tombstones, so the table holds only pending requests and lookups never slow down.
+ * The segment is either plain native memory or a memory-mapped file, which keeps the index across restarts.
+ * The table does not grow: once {@code capacity} requests are pending, new ones are rejected and callers fall back
+ * to the database. Entries are compared by hash only, so two unique IDs colliding on all 64 bits would share a slot.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.index.enabled", havingValue = "true")
+public class PendingPaymentIndex implements AutoCloseable {
+
+    private static final long MAGIC = 0x5041594944583032L;
+    private static final long HEADER_SIZE = 64;
+    private static final long SLOT_SIZE = 32;
+
+    private static final long MAGIC_OFFSET = 0;
+    private static final long SLOTS_OFFSET = 8;
+    private static final long SIZE_OFFSET = 16;
+
+    private static final long HASH_OFFSET = 0;
+    private static final long ID_OFFSET = 8;
+    private static final long AMOUNT_OFFSET = 16;
+    private static final long TIMESTAMP_OFFSET = 24;
+
+    private static final long EMPTY = 0;
+
+    private final Arena arena = Arena.ofShared();
+    private final StampedLock lock = new StampedLock();
+    private final MemorySegment segment;
+    private final long capacity;
+    private final long slots;
+    private final long mask;
+
+    public PendingPaymentIndex(@Value("${payment.index.capacity:1000000}") long capacity,
+                               @Value("${payment.index.file:}") String file) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The index capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.slots = Long.highestOneBit(capacity * 4 / 3 + 1) << 1;
+        this.mask = slots - 1;
+
+        long byteSize = HEADER_SIZE + slots * SLOT_SIZE;
+        try {
+            this.segment = file.isBlank() ? arena.allocate(byteSize, Long.BYTES) : map(Path.of(file), byteSize);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private MemorySegment map(Path file, long byteSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long existing = channel.size();
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize, arena);
+            if (existing == 0) {
+                mapped.set(ValueLayout.JAVA_LONG, SLOTS_OFFSET, slots);
+                mapped.set(ValueLayout.JAVA_LONG, MAGIC_OFFSET, MAGIC);
+            } else if (existing != byteSize
+                    || mapped.get(ValueLayout.JAVA_LONG, MAGIC_OFFSET) != MAGIC
+                    || mapped.get(ValueLayout.JAVA_LONG, SLOTS_OFFSET) != slots) {
+                throw new IllegalStateException("Index file " + file + " was not created with capacity " + capacity);
+            }
+            return mapped;
+        }
+    }
+
+    /**
+     * Indexes a payment request, replacing any entry with the same unique ID.
+     *
+     * @return false when the amount has more than two decimal places or the index is full
+     */
+    public boolean put(String uniqueId, long id, BigDecimal amount, LocalDateTime timestamp) {
+        long amountMinor;
+        try {
+            amountMinor = amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        long epochMillis = timestamp == null ? 0 : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long hash = hash(uniqueId);
+
+        long stamp = lock.writeLock();
+        try {
+            long slot = findSlot(hash);
+            long offset = offset(slot);
+            if (segment.get(ValueLayout.JAVA_LONG, offset + HASH_OFFSET) == EMPTY) {
+                long size = size();
+                if (size >= capacity) {
+                    return false;
+                }
+                segment.set(ValueLayout.JAVA_LONG, SIZE_OFFSET, size + 1);
+            }
+            segment.set(ValueLayout.JAVA_LONG, offset + ID_OFFSET, id);
+            segment.set(ValueLayout.JAVA_LONG, offset + AMOUNT_OFFSET, amountMinor);
+            segment.set(ValueLayout.JAVA_LONG, offset + TIMESTAMP_OFFSET, epochMillis);
+            segment.set(ValueLayout.JAVA_LONG, offset + HASH_OFFSET, hash);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Optional<PendingPayment> find(String uniqueId) {
+        long hash = hash(uniqueId);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            PendingPayment payment = read(hash);
+            if (lock.validate(stamp)) {
+                return Optional.ofNullable(payment);
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return Optional.ofNullable(read(hash));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Removes the entry once its request is paid, freeing the slot for new requests.
+     *
+     * @return false when the unique ID is not indexed
+     */
+    public boolean remove(String uniqueId) {
+        long hash = hash(uniqueId);
+
+        long stamp = lock.writeLock();
+        try {
+            long slot = findSlot(hash);
+            if (segment.get(ValueLayout.JAVA_LONG, offset(slot) + HASH_OFFSET) != hash) {
+                return false;
+            }
+            shiftBack(slot);
+            segment.set(ValueLayout.JAVA_LONG, SIZE_OFFSET, size() - 1);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public long size() {
+        return segment.get(ValueLayout.JAVA_LONG, SIZE_OFFSET);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            if (segment.isMapped()) {
+                segment.force();
+            }
+            arena.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private PendingPayment read(long hash) {
+        long offset = offset(findSlot(hash));
+        if (segment.get(ValueLayout.JAVA_LONG, offset + HASH_OFFSET) != hash) {
+            return null;
+        }
+        return new PendingPayment(
+                segment.get(ValueLayout.JAVA_LONG, offset + ID_OFFSET),
+                segment.get(ValueLayout.JAVA_LONG, offset + AMOUNT_OFFSET),
+                segment.get(ValueLayout.JAVA_LONG, offset + TIMESTAMP_OFFSET));
+    }
+
+    /**
+     * Empties the slot, then walks the rest of its probe run moving back every entry whose home slot does not lie
+     * between the hole and the entry itself, so no entry ends up behind an empty slot on its own probe path.
+     */
+    private void shiftBack(long hole) {
+        long slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long stored = segment.get(ValueLayout.JAVA_LONG, offset(slot) + HASH_OFFSET);
+            if (stored == EMPTY) {
+                break;
+            }
+            long home = stored & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                MemorySegment.copy(segment, offset(slot), segment, offset(hole), SLOT_SIZE);
+                hole = slot;
+            }
+        }
+        segment.set(ValueLayout.JAVA_LONG, offset(hole) + HASH_OFFSET, EMPTY);
+    }
+
+    /**
+     * Returns the slot holding the hash, or the empty slot where it would be inserted. The load factor keeps at
+     * least one slot empty, so the probe always ends.
+     */
+    private long findSlot(long hash) {
+        long slot = hash & mask;
+        for (long probes = 0; probes < slots; probes++) {
+            long stored = segment.get(ValueLayout.JAVA_LONG, offset(slot) + HASH_OFFSET);
+            if (stored == hash || stored == EMPTY) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long offset(long slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * FNV-1a over the characters followed by the MurmurHash3 finalizer, never returning the empty marker.
+     */
+    static long hash(String uniqueId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < uniqueId.length(); i++) {
+            hash ^= uniqueId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.lease;
+
+import com.eliasnogueira.paymentsystem.repository.LeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases stored in the shared {@code payment_lease} table, so every node pointing at the same database sees them.
+ * <p>
+ * A lease is taken by inserting its row, or by taking over a row whose lease expired, and is released by deleting
+ * the row. Fencing tokens come from the {@code payment_lease_token_seq} sequence, so they keep increasing across
+ * rows that were deleted and recreated; they keep a stale holder from seeing or releasing a lease that was taken
+ * over. The payment itself is fenced by the {@code paid = false} guard of its update, not by the token. Expiry uses
+ * the clock of each node, so the lease duration must be well above the expected clock skew between nodes.
+ * <p>
+ * Waiting callers retry with capped exponential backoff and full jitter: every retry is a round trip to the
+ * database, and callers that retry in lockstep on a hot key would take turns hammering the row instead of the
+ * holder finishing its work.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.lease.type", havingValue = "database")
+public class DatabaseLeaseManager implements PaymentLeaseManager {
+
+    private final LeaseRepository leaseRepository;
+    private final long leaseDurationMillis;
+    private final long waitTimeoutNanos;
+    private final long retryIntervalMillis;
+    private final long maxRetryIntervalMillis;
+
+    public DatabaseLeaseManager(LeaseRepository leaseRepository,
+                                @Value("${payment.lease.duration:30s}") Duration leaseDuration,
+                                @Value("${payment.lease.wait-timeout:5s}") Duration waitTimeout,
+                                @Value("${payment.lease.retry-interval:10ms}") Duration retryInterval,
+                                @Value("${payment.lease.max-retry-interval:200ms}") Duration maxRetryInterval) {
+        this.leaseRepository = leaseRepository;
+        this.leaseDurationMillis = leaseDuration.toMillis();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.retryIntervalMillis = Math.max(1, retryInterval.toMillis());
+        this.maxRetryIntervalMillis = Math.max(retryIntervalMillis, maxRetryInterval.toMillis());
+    }
+
+    @Override
+    public Optional<PaymentLease> tryAcquire(String key) {
+        String holder = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + waitTimeoutNanos;
+        long backoffMillis = retryIntervalMillis;
+
+        while (true) {
+            Optional<PaymentLease> lease = attempt(key, holder);
+            long remainingNanos = deadline - System.nanoTime();
+            if (lease.isPresent() || remainingNanos <= 0) {
+                return lease;
+            }
+            try {
+                long sleepMillis = ThreadLocalRandom.current().nextLong(1, backoffMillis + 1);
+                TimeUnit.NANOSECONDS.sleep(Math.min(TimeUnit.MILLISECONDS.toNanos(sleepMillis), remainingNanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+            backoffMillis = Math.min(backoffMillis * 2, maxRetryIntervalMillis);
+        }
+    }
+
+    private Optional<PaymentLease> attempt(String key, String holder) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + leaseDurationMillis;
+        if (insertIfAbsent(key, holder, expiresAt) == 0
+                && leaseRepository.takeOverExpired(key, holder, expiresAt, now) == 0) {
+            return Optional.empty();
+        }
+
+        return leaseRepository.findById(key)
+                .filter(lease -> holder.equals(lease.getHolder()))
+                .map(lease -> new DatabaseLease(key, holder, lease.getFencingToken()));
+    }
+
+    private int insertIfAbsent(String key, String holder, long expiresAt) {
+        try {
+            return leaseRepository.insertIfAbsent(key, holder, expiresAt);
+        } catch (DataIntegrityViolationException e) {
+            // another node inserted the row first and holds the lease
+            return 0;
+        }
+    }
+
+    private final class DatabaseLease implements PaymentLease {
+
+        private final String key;
+        private final String holder;
+        private final long fencingToken;
+
+        private DatabaseLease(String key, String holder, long fencingToken) {
+            this.key = key;
+            this.holder = holder;
+            this.fencingToken = fencingToken;
+        }
+
+        @Override
+        public long fencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        public boolean isHeld() {
+            return leaseRepository.isHeld(key, holder, fencingToken, System.currentTimeMillis());
+        }
+
+        @Override
+        public void close() {
+            leaseRepository.release(key, holder, fencingToken);
+        }
+    }
+}
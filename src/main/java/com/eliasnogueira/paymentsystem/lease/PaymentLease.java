@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.lease;
+
+/**
+ * Exclusive, time-bound right to process a single payment.
+ * <p>
+ * The fencing token grows with every acquisition of the same key, so a holder whose lease expired can be told
+ * apart from the one that took it over. It fences the lease row itself ({@link #isHeld()} and {@link #close()}),
+ * not the payment: the only write a holder makes is the {@code paid = false} guarded update of
+ * {@code PaymentRepository.markPaid}, which already lets exactly one holder win, so a stale holder that passed
+ * {@link #isHeld()} just before its lease was taken over updates no rows.
+ */
+public interface PaymentLease extends AutoCloseable {
+
+    long fencingToken();
+
+    /**
+     * Returns whether this lease is still owned by its holder and has not expired.
+     */
+    boolean isHeld();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.lease;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM leases backed by a fixed set of locks; keys hashing to the same stripe share a lock.
+ * Only protects a single instance of the application.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.lease.type", havingValue = "local", matchIfMissing = true)
+public class StripedLockLeaseManager implements PaymentLeaseManager {
+
+    private final ReentrantLock[] stripes;
+    private final long waitTimeoutNanos;
+    private final AtomicLong fencingTokens = new AtomicLong();
+
+    public StripedLockLeaseManager(@Value("${payment.lease.stripes:64}") int stripes,
+                                   @Value("${payment.lease.fair:false}") boolean fair,
+                                   @Value("${payment.lease.wait-timeout:5s}") Duration waitTimeout) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("The number of lease stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(fair);
+        }
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    @Override
+    public Optional<PaymentLease> tryAcquire(String key) {
+        ReentrantLock lock = stripeFor(key);
+        try {
+            if (!lock.tryLock(waitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return Optional.empty();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        return Optional.of(new LocalLease(lock, fencingTokens.incrementAndGet()));
+    }
+
+    private ReentrantLock stripeFor(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private static final class LocalLease implements PaymentLease {
+
+        private final ReentrantLock lock;
+        private final long fencingToken;
+        private boolean released;
+
+        private LocalLease(ReentrantLock lock, long fencingToken) {
+            this.lock = lock;
+            this.fencingToken = fencingToken;
+        }
+
+        @Override
+        public long fencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        public boolean isHeld() {
+            return !released && lock.isHeldByCurrentThread();
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -30,46 +30,28 @@ import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-public class PaymentRequest {
-
-    @NotBlank(message = "Unique ID is required")
-    private String uniqueId;
-
-    @NotNull(message = "Amount is required")
-    @Positive(message = "Amount must be positive")
-    private BigDecimal amount;
-
-    private LocalDateTime timestamp = LocalDateTime.now();
-
-    public PaymentRequest() {}
-
-    public PaymentRequest(String uniqueId, BigDecimal amount, LocalDateTime timestamp) {
-        this.uniqueId = uniqueId;
-        this.amount = amount;
-        this.timestamp = timestamp;
-    }
-
-    public String getUniqueId() {
-        return uniqueId;
-    }
+/**
+ * Immutable payment request bound straight from the request body through the canonical constructor.
+ * The timestamp defaults to the current time only when the client does not send one.
+ */
+public record PaymentRequest(
 
-    public void setUniqueId(String uniqueId) {
-        this.uniqueId = uniqueId;
-    }
+        @NotBlank(message = "Unique ID is required")
+        String uniqueId,
 
-    public BigDecimal getAmount() {
-        return amount;
-    }
+        @NotNull(message = "Amount is required")
+        @Positive(message = "Amount must be positive")
+        BigDecimal amount,
 
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
-    }
+        LocalDateTime timestamp) {
 
-    public LocalDateTime getTimestamp() {
-        return timestamp;
+    public PaymentRequest {
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 
-    public void setTimestamp(LocalDateTime timestamp) {
-        this.timestamp = timestamp;
+    public PaymentRequest(String uniqueId, BigDecimal amount) {
+        this(uniqueId, amount, null);
     }
 }
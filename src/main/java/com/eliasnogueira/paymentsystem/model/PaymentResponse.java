@@ -23,91 +23,34 @@
  */
 package com.eliasnogueira.paymentsystem.model;
 
-import java.math.BigDecimal;
-
-public class PaymentResponse {
-
-    private String status;
-    private String message;
-    private BigDecimal amount;
-    private String uniqueId;
-    private boolean paid;
-    private String creditCardNumber;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import java.math.BigDecimal;
 
-    public PaymentResponse(String status, String message, BigDecimal amount, String uniqueId, boolean paid, String creditCardNumber) {
-        this.status = status;
-        this.message = message;
-        this.amount = amount;
-        this.uniqueId = uniqueId;
-        this.paid = paid;
-        this.creditCardNumber = creditCardNumber;
-    }
+/**
+ * Immutable result of a payment attempt, written by {@link PaymentResponseSerializer}.
+ */
+@JsonSerialize(using = PaymentResponseSerializer.class)
+public record PaymentResponse(
+        String status,
+        String message,
+        BigDecimal amount,
+        String uniqueId,
+        boolean paid,
+        String creditCardNumber) {
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+
+    public static final String MESSAGE_PROCESSED = "Payment processed successfully";
+    public static final String MESSAGE_NOT_FOUND = "Payment request not found";
+    public static final String MESSAGE_AMOUNT_MISMATCH = "Amount does not match the payment request";
+    public static final String MESSAGE_INVALID_CREDIT_CARD = "Invalid credit card number";
+    public static final String MESSAGE_ALREADY_PAID = "Payment already processed";
+    public static final String MESSAGE_IN_PROGRESS = "Payment is already being processed";
+    public static final String MESSAGE_LEASE_EXPIRED = "Payment lease expired before completion";
 
     public PaymentResponse(String status, String message, BigDecimal amount, String uniqueId) {
-        this.status = status;
-        this.message = message;
-        this.amount = amount;
-        this.uniqueId = uniqueId;
-    }
-
-    public String getStatus() {
-        return status;
-    }
-
-    public void setStatus(String status) {
-        this.status = status;
-    }
-
-    public String getMessage() {
-        return message;
-    }
-
-    public void setMessage(String message) {
-        this.message = message;
-    }
-
-    public BigDecimal getAmount() {
-        return amount;
-    }
-
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
-    }
-
-    public String getUniqueId() {
-        return uniqueId;
-    }
-
-    public void setUniqueId(String uniqueId) {
-        this.uniqueId = uniqueId;
-    }
-
-    public boolean isPaid() {
-        return paid;
-    }
-
-    public void setPaid(boolean paid) {
-        this.paid = paid;
-    }
-
-    public String getCreditCardNumber() {
-        return creditCardNumber;
-    }
-
-    public void setCreditCardNumber(String creditCardNumber) {
-        this.creditCardNumber = creditCardNumber;
-    }
-
-    @Override
-    public String toString() {
-        return "PaymentResponse{" +
-                "status='" + status + '\'' +
-                ", message='" + message + '\'' +
-                ", amount=" + amount +
-                ", uniqueId='" + uniqueId + '\'' +
-                ", paid=" + paid +
-                ", creditCardNumber='" + creditCardNumber + '\'' +
-                '}';
+        this(status, message, amount, uniqueId, false, null);
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streaming writer for {@link PaymentResponse}.
+ * <p>
+ * Field names and the constant status and message values are held as {@link SerializedString}s, so their
+ * encoded bytes are computed once and copied into the output instead of being re-encoded on every response.
+ * The generator-level calls keep it usable for both JSON and CBOR.
+ */
+public class PaymentResponseSerializer extends StdSerializer<PaymentResponse> {
+
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString UNIQUE_ID = new SerializedString("uniqueId");
+    private static final SerializableString PAID = new SerializedString("paid");
+    private static final SerializableString CREDIT_CARD_NUMBER = new SerializedString("creditCardNumber");
+
+    private static final Map<String, SerializableString> CONSTANT_VALUES = Stream.of(
+                    PaymentResponse.STATUS_SUCCESS,
+                    PaymentResponse.STATUS_FAILED,
+                    PaymentResponse.MESSAGE_PROCESSED,
+                    PaymentResponse.MESSAGE_NOT_FOUND,
+                    PaymentResponse.MESSAGE_AMOUNT_MISMATCH,
+                    PaymentResponse.MESSAGE_INVALID_CREDIT_CARD,
+                    PaymentResponse.MESSAGE_ALREADY_PAID,
+                    PaymentResponse.MESSAGE_IN_PROGRESS,
+                    PaymentResponse.MESSAGE_LEASE_EXPIRED)
+            .collect(Collectors.toUnmodifiableMap(Function.identity(), SerializedString::new));
+
+    public PaymentResponseSerializer() {
+        super(PaymentResponse.class);
+    }
+
+    @Override
+    public void serialize(PaymentResponse response, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(response);
+
+        generator.writeFieldName(STATUS);
+        writeText(generator, response.status());
+
+        generator.writeFieldName(MESSAGE);
+        writeText(generator, response.message());
+
+        generator.writeFieldName(AMOUNT);
+        if (response.amount() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(response.amount());
+        }
+
+        generator.writeFieldName(UNIQUE_ID);
+        generator.writeString(response.uniqueId());
+
+        generator.writeFieldName(PAID);
+        generator.writeBoolean(response.paid());
+
+        generator.writeFieldName(CREDIT_CARD_NUMBER);
+        generator.writeString(response.creditCardNumber());
+
+        generator.writeEndObject();
+    }
+
+    private static void writeText(JsonGenerator generator, String value) throws IOException {
+        SerializableString constant = value == null ? null : CONSTANT_VALUES.get(value);
+        if (constant != null) {
+            generator.writeString(constant);
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
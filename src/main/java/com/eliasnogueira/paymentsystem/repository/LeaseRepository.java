@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.repository;
+
+import com.eliasnogueira.paymentsystem.model.Lease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface LeaseRepository extends JpaRepository<Lease, String> {
+
+    /**
+     * Creates the lease row unless one exists. Two nodes racing past the existence check make the second insert
+     * fail on the primary key, which surfaces as a {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into payment_lease (lease_key, holder, fencing_token, expires_at) " +
+            "select :leaseKey, :holder, next value for payment_lease_token_seq, :expiresAt " +
+            "where not exists (select 1 from payment_lease where lease_key = :leaseKey)", nativeQuery = true)
+    int insertIfAbsent(@Param("leaseKey") String leaseKey, @Param("holder") String holder,
+                       @Param("expiresAt") long expiresAt);
+
+    /**
+     * Takes over a lease whose holder let it expire without releasing it.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update payment_lease set holder = :holder, " +
+            "fencing_token = next value for payment_lease_token_seq, expires_at = :expiresAt " +
+            "where lease_key = :leaseKey and expires_at < :now", nativeQuery = true)
+    int takeOverExpired(@Param("leaseKey") String leaseKey, @Param("holder") String holder,
+                        @Param("expiresAt") long expiresAt, @Param("now") long now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Lease l " +
+            "where l.leaseKey = :leaseKey and l.holder = :holder and l.fencingToken = :fencingToken")
+    int release(@Param("leaseKey") String leaseKey, @Param("holder") String holder,
+                @Param("fencingToken") long fencingToken);
+
+    @Query("select case when count(l) > 0 then true else false end from Lease l " +
+            "where l.leaseKey = :leaseKey and l.holder = :holder and l.fencingToken = :fencingToken " +
+            "and l.expiresAt >= :now")
+    boolean isHeld(@Param("leaseKey") String leaseKey, @Param("holder") String holder,
+                   @Param("fencingToken") long fencingToken, @Param("now") long now);
+}
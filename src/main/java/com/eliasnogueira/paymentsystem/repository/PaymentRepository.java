@@ -25,9 +25,24 @@ package com.eliasnogueira.paymentsystem.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.eliasnogueira.paymentsystem.model.Payment;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Payment findByUniqueId(String uniqueId);
+
+    /**
+     * Marks the payment as paid only if nobody did it first.
+     *
+     * @return 1 when this call paid it, 0 when it was already paid
+     */
+    @Transactional
+    @Modifying
+    @Query("update Payment p set p.paid = true, p.creditCardNumber = :creditCardNumber " +
+            "where p.id = :id and p.paid = false")
+    int markPaid(@Param("id") Long id, @Param("creditCardNumber") String creditCardNumber);
 }
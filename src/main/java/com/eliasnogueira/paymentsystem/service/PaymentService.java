@@ -23,14 +23,25 @@
  */
 package com.eliasnogueira.paymentsystem.service;
 
+import com.eliasnogueira.paymentsystem.index.PendingPayment;
+import com.eliasnogueira.paymentsystem.index.PendingPaymentIndex;
+import com.eliasnogueira.paymentsystem.lease.PaymentLease;
+import com.eliasnogueira.paymentsystem.lease.PaymentLeaseManager;
 import com.eliasnogueira.paymentsystem.model.Payment;
 import com.eliasnogueira.paymentsystem.model.PaymentRequest;
 import com.eliasnogueira.paymentsystem.model.PaymentResponse;
 import com.eliasnogueira.paymentsystem.repository.PaymentRepository;
+import com.eliasnogueira.paymentsystem.tracing.Tracing;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Optional;
+
+import static com.eliasnogueira.paymentsystem.model.PaymentResponse.*;
 
 @Service
 public class PaymentService {
@@ -38,33 +49,114 @@ public class PaymentService {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private PaymentLeaseManager paymentLeaseManager;
+
+    @Autowired(required = false)
+    private PendingPaymentIndex pendingPaymentIndex;
+
+    @Autowired
+    private Tracer tracer;
+
     public Payment createPaymentRequest(PaymentRequest paymentRequest) {
         Payment payment = new Payment();
-        payment.setUniqueId(paymentRequest.getUniqueId());
-        payment.setAmount(paymentRequest.getAmount());
-        payment.setTimestamp(paymentRequest.getTimestamp());
-        return paymentRepository.save(payment);
+        payment.setUniqueId(paymentRequest.uniqueId());
+        payment.setAmount(paymentRequest.amount());
+        payment.setTimestamp(paymentRequest.timestamp());
+        Payment saved = Tracing.inSpan(tracer, "PaymentRepository.save", () -> paymentRepository.save(payment));
+
+        if (pendingPaymentIndex != null && saved != null && saved.getId() != null) {
+            pendingPaymentIndex.put(saved.getUniqueId(), saved.getId(), saved.getAmount(), saved.getTimestamp());
+        }
+        return saved;
     }
 
     public PaymentResponse processPayment(String uniqueId, String creditCardNumber, BigDecimal amount) {
-        Payment payment = paymentRepository.findByUniqueId(uniqueId);
-        if (payment == null) {
-            return new PaymentResponse("FAILED", "Payment request not found", null, uniqueId);
+        return Tracing.inSpan(tracer, "PaymentService.processPayment", () -> {
+            PaymentResponse response = processWithLease(uniqueId, creditCardNumber, amount);
+            if (STATUS_FAILED.equals(response.status())) {
+                Span.current().setStatus(StatusCode.ERROR, response.message());
+            }
+            return response;
+        });
+    }
+
+    private PaymentResponse processWithLease(String uniqueId, String creditCardNumber, BigDecimal amount) {
+        Optional<PaymentLease> acquired = Tracing.inSpan(tracer, "PaymentLeaseManager.tryAcquire",
+                () -> paymentLeaseManager.tryAcquire(uniqueId));
+        if (acquired.isEmpty()) {
+            return new PaymentResponse(STATUS_FAILED, MESSAGE_IN_PROGRESS, null, uniqueId);
         }
 
-        if (payment.getAmount().compareTo(amount) != 0) {
-            return new PaymentResponse("FAILED", "Amount does not match the payment request", payment.getAmount(), uniqueId);
+        try (PaymentLease lease = acquired.get()) {
+            return processPayment(lease, uniqueId, creditCardNumber, amount);
         }
+    }
 
-        if (!isValidCreditCard(creditCardNumber)) {
-            return new PaymentResponse("FAILED", "Invalid credit card number", payment.getAmount(), uniqueId);
+    /**
+     * Pays a request found in the index without loading it: the index holds the id and amount, and the write is
+     * guarded by {@code paid = false}. Requests missing from the index are loaded by unique ID.
+     */
+    private PaymentResponse processPayment(PaymentLease lease, String uniqueId, String creditCardNumber, BigDecimal amount) {
+        PendingPayment indexed = pendingPaymentIndex == null ? null : Tracing.inSpan(tracer,
+                "PendingPaymentIndex.find", () -> pendingPaymentIndex.find(uniqueId).orElse(null));
+
+        final Long id;
+        final BigDecimal storedAmount;
+        final boolean paid;
+        if (indexed != null) {
+            id = indexed.id();
+            storedAmount = indexed.amount();
+            paid = false;
+        } else {
+            Payment payment = Tracing.inSpan(tracer, "PaymentRepository.findByUniqueId",
+                    () -> paymentRepository.findByUniqueId(uniqueId));
+            if (payment == null) {
+                return new PaymentResponse(STATUS_FAILED, MESSAGE_NOT_FOUND, null, uniqueId);
+            }
+            id = payment.getId();
+            storedAmount = payment.getAmount();
+            paid = payment.isPaid();
         }
 
-        payment.setPaid(true);
-        payment.setCreditCardNumber(creditCardNumber);
-        paymentRepository.save(payment);
+        String rejection = Tracing.inSpan(tracer, "PaymentService.validate",
+                () -> validate(paid, storedAmount, creditCardNumber, amount));
+        if (rejection == null && !Tracing.inSpan(tracer, "PaymentLease.isHeld", lease::isHeld)) {
+            rejection = MESSAGE_LEASE_EXPIRED;
+        }
+        if (rejection != null) {
+            return new PaymentResponse(STATUS_FAILED, rejection, storedAmount, uniqueId);
+        }
+
+        int updated = Tracing.inSpan(tracer, "PaymentRepository.markPaid",
+                () -> paymentRepository.markPaid(id, creditCardNumber));
+        if (indexed != null) {
+            // paid here or by another node, either way the slot is no longer needed
+            pendingPaymentIndex.remove(uniqueId);
+        }
+        if (updated == 0) {
+            return new PaymentResponse(STATUS_FAILED, MESSAGE_ALREADY_PAID, storedAmount, uniqueId);
+        }
+
+        return new PaymentResponse(STATUS_SUCCESS, MESSAGE_PROCESSED, storedAmount, uniqueId, true, creditCardNumber);
+    }
 
-        return new PaymentResponse("SUCCESS", "Payment processed successfully", payment.getAmount(), uniqueId, true, creditCardNumber);
+    /**
+     * Returns the message explaining why the payment cannot be completed, or null when it can.
+     */
+    private String validate(boolean paid, BigDecimal storedAmount, String creditCardNumber, BigDecimal amount) {
+        if (paid) {
+            return MESSAGE_ALREADY_PAID;
+        }
+
+        if (storedAmount.compareTo(amount) != 0) {
+            return MESSAGE_AMOUNT_MISMATCH;
+        }
+
+        if (!isValidCreditCard(creditCardNumber)) {
+            return MESSAGE_INVALID_CREDIT_CARD;
+        }
+        return null;
     }
 
     private boolean isValidCreditCard(String creditCardNumber) {
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.tracing;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tail-based sampling: holds the spans of each trace until its local root span ends, then forwards the whole trace
+ * to the delegate when the root was slow, any span failed, or the trace wins the random draw.
+ * <p>
+ * Every span is recorded, but only kept traces pay for export, and at most {@code maxKeptTracesPerSecond} are kept:
+ * under overload nearly every trace is slow, and exporting all of them would add to the load that made them slow.
+ * Each span's status is read once, when it ends, so
+ * deciding on a trace does not revisit its children. At most {@code maxPendingTraces} traces are held at once;
+ * when the limit is reached, traces pending for longer than {@code pendingTimeout} are evicted, which covers roots
+ * that never end and children ending after their root. Child spans that still find no room are dropped.
+ */
+public class SlowOrFailedTraceSpanProcessor implements SpanProcessor {
+
+    private static final long SWEEP_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final long KEEP_WINDOW_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final double sampleRatio;
+    private final int maxPendingTraces;
+    private final long pendingTimeoutNanos;
+    private final int maxKeptTracesPerSecond;
+    private final Map<String, PendingTrace> pendingTraces = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong keepWindowStartNanos = new AtomicLong(System.nanoTime());
+    private final AtomicInteger keptInWindow = new AtomicInteger();
+
+    public SlowOrFailedTraceSpanProcessor(SpanProcessor delegate, Duration slowThreshold, double sampleRatio,
+                                          int maxPendingTraces, Duration pendingTimeout, int maxKeptTracesPerSecond) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRatio = sampleRatio;
+        this.maxPendingTraces = maxPendingTraces;
+        this.pendingTimeoutNanos = pendingTimeout.toNanos();
+        this.maxKeptTracesPerSecond = maxKeptTracesPerSecond;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        boolean localRoot = !span.getParentSpanContext().isValid() || span.getParentSpanContext().isRemote();
+
+        if (!localRoot) {
+            PendingTrace trace = pendingTraces.get(traceId);
+            if (trace == null) {
+                if (pendingTraces.size() >= maxPendingTraces && !evictExpired()) {
+                    return;
+                }
+                trace = pendingTraces.computeIfAbsent(traceId, id -> new PendingTrace(System.nanoTime()));
+            }
+            trace.add(span, failed(span));
+            return;
+        }
+
+        PendingTrace trace = pendingTraces.remove(traceId);
+        boolean keep = span.getLatencyNanos() >= slowThresholdNanos
+                || failed(span)
+                || (trace != null && trace.failed())
+                || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+        if (keep && withinKeepLimit()) {
+            if (trace != null) {
+                trace.spans().forEach(delegate::onEnd);
+            }
+            delegate.onEnd(span);
+        }
+    }
+
+    /**
+     * Removes traces pending for longer than the timeout, at most once per second so a full table of live traces
+     * is not rescanned for every span.
+     *
+     * @return true when there is room for another trace
+     */
+    private boolean evictExpired() {
+        long now = System.nanoTime();
+        long next = nextSweepNanos.get();
+        if (now - next >= 0 && nextSweepNanos.compareAndSet(next, now + SWEEP_INTERVAL_NANOS)) {
+            pendingTraces.values().removeIf(trace -> now - trace.startNanos > pendingTimeoutNanos);
+        }
+        return pendingTraces.size() < maxPendingTraces;
+    }
+
+    private boolean withinKeepLimit() {
+        long now = System.nanoTime();
+        long windowStart = keepWindowStartNanos.get();
+        if (now - windowStart >= KEEP_WINDOW_NANOS && keepWindowStartNanos.compareAndSet(windowStart, now)) {
+            keptInWindow.set(0);
+        }
+        return keptInWindow.incrementAndGet() <= maxKeptTracesPerSecond;
+    }
+
+    private static boolean failed(ReadableSpan span) {
+        return span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pendingTraces.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    int pendingTraceCount() {
+        return pendingTraces.size();
+    }
+
+    private static final class PendingTrace {
+
+        private final long startNanos;
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private boolean failed;
+
+        private PendingTrace(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        synchronized void add(ReadableSpan span, boolean spanFailed) {
+            spans.add(span);
+            failed |= spanFailed;
+        }
+
+        synchronized boolean failed() {
+            return failed;
+        }
+
+        synchronized List<ReadableSpan> spans() {
+            return List.copyOf(spans);
+        }
+    }
+}
@@ -0,0 +1 @@
+create sequence if not exists payment_lease_token_seq;
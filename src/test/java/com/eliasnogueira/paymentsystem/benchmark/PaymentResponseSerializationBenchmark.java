@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.benchmark;
+
+import com.eliasnogueira.paymentsystem.model.PaymentResponse;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Jackson's reflective bean serializer with {@link com.eliasnogueira.paymentsystem.model.PaymentResponseSerializer}
+ * for JSON, and the streaming serializer for CBOR.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -DskipTests -Djmh.args="PaymentResponseSerialization -prof gc"} to get
+ * {@code gc.alloc.rate.norm} (bytes allocated per operation) next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentResponseSerializationBenchmark {
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    abstract static class ReflectiveSerialization {
+    }
+
+    private PaymentResponse response;
+    private ObjectMapper reflectiveJson;
+    private ObjectMapper streamingJson;
+    private ObjectMapper streamingCbor;
+
+    @Setup
+    public void setUp() {
+        response = new PaymentResponse(PaymentResponse.STATUS_SUCCESS, PaymentResponse.MESSAGE_PROCESSED,
+                new BigDecimal("100.00"), "0f9b7c2e-2a51-4d55-8f0e-6a3c1d9e4b7a", true, "1234567890123456");
+        reflectiveJson = new ObjectMapper().addMixIn(PaymentResponse.class, ReflectiveSerialization.class);
+        streamingJson = new ObjectMapper();
+        streamingCbor = new CBORMapper();
+    }
+
+    @Benchmark
+    public byte[] reflectiveJson() throws Exception {
+        return reflectiveJson.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] streamingJson() throws Exception {
+        return streamingJson.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] streamingCbor() throws Exception {
+        return streamingCbor.writeValueAsBytes(response);
+    }
+}
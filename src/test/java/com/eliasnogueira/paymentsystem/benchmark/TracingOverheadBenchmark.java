@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.benchmark;
+
+import com.eliasnogueira.paymentsystem.config.TracingConfiguration;
+import com.eliasnogueira.paymentsystem.tracing.SlowOrFailedTraceSpanProcessor;
+import com.eliasnogueira.paymentsystem.tracing.Tracing;
+import com.zaxxer.hikari.HikariDataSource;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of tracing one payment, shaped like a traced {@code POST /payments/process/{uniqueId}}: a server span, the
+ * controller, service, lease and repository spans, and the two statements of the payment run against an in-memory
+ * H2 database through a Hikari pool, wrapped the way {@link TracingConfiguration} wraps the application's data
+ * source. HTTP handling and Hibernate are left out, so the overhead reads as a share of the cheapest possible
+ * request; a real request costs more and the share is smaller.
+ * <p>
+ * {@code off} uses the no-op tracer and the bare data source, as the application does when tracing is disabled;
+ * {@code on} the SDK with the default tail sampling (1% of fast, successful traces kept) exporting to a discarding
+ * exporter; {@code failed} has every trace kept because a span fails.
+ * <p>
+ * Run with {@code mvn -Pbenchmark verify -DskipTests -Djmh.args="TracingOverhead -prof gc"}.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+    private static final String UNIQUE_ID = "0f9b7c2e-2a51-4d55-8f0e-6a3c1d9e4b7a";
+
+    @Param({"off", "on", "failed"})
+    private String tracing;
+
+    private HikariDataSource pool;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private DataSource dataSource;
+
+    @Setup
+    public void setUp() throws SQLException {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:tracing-benchmark;DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(1);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists payment (id bigint primary key, unique_id varchar(64), "
+                    + "amount decimal(19, 2), paid boolean, credit_card_number varchar(16))");
+            statement.execute("merge into payment values (1, '" + UNIQUE_ID + "', 100.00, false, null)");
+        }
+
+        if ("off".equals(tracing)) {
+            tracer = OpenTelemetry.noop().getTracer("benchmark");
+            dataSource = pool;
+            return;
+        }
+        BatchSpanProcessor exporting = BatchSpanProcessor.builder(new DiscardingExporter()).build();
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(new SlowOrFailedTraceSpanProcessor(
+                        exporting, Duration.ofMillis(500), 0.01, 10_000, Duration.ofMinutes(1), 20))
+                .build();
+        tracer = tracerProvider.get("benchmark");
+        dataSource = TracingConfiguration.traced(
+                OpenTelemetrySdk.builder().setTracerProvider(tracerProvider).build(), pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+        pool.close();
+    }
+
+    @Benchmark
+    public Object processPayment() {
+        Span server = tracer.spanBuilder("POST")
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute("http.request.method", "POST")
+                .setAttribute("url.path", "/payments/process/" + UNIQUE_ID)
+                .startSpan();
+        try (Scope ignored = server.makeCurrent()) {
+            return Tracing.inSpan(tracer, "PaymentController.processPayment", () ->
+                    Tracing.inSpan(tracer, "PaymentService.processPayment", () -> {
+                        Tracing.inSpan(tracer, "PaymentLeaseManager.tryAcquire", () -> Boolean.TRUE);
+                        BigDecimal amount = Tracing.inSpan(tracer, "PaymentRepository.findByUniqueId",
+                                this::findAmount);
+                        Tracing.inSpan(tracer, "PaymentService.validate", () -> amount.signum() > 0);
+                        Tracing.inSpan(tracer, "PaymentLease.isHeld", () -> Boolean.TRUE);
+                        int updated = Tracing.inSpan(tracer, "PaymentRepository.markPaid", this::markPaid);
+                        if ("failed".equals(tracing)) {
+                            Span.current().setStatus(StatusCode.ERROR, "Invalid credit card number");
+                        }
+                        return updated;
+                    }));
+        } finally {
+            server.updateName("POST /payments/process/{uniqueId}");
+            server.setAttribute("http.route", "/payments/process/{uniqueId}");
+            server.setAttribute("http.response.status_code", 200L);
+            server.end();
+        }
+    }
+
+    private BigDecimal findAmount() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "select amount from payment where unique_id = ?")) {
+            statement.setString(1, UNIQUE_ID);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getBigDecimal(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int markPaid() {
+        // leaves the row unpaid so every invocation does the same work
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "update payment set credit_card_number = ? where id = ? and paid = false")) {
+            statement.setString(1, "1234567890123456");
+            statement.setLong(2, 1L);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class DiscardingExporter implements SpanExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingPaymentIndexTest {
+
+    @Test
+    void testPutAndFind() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 10, 0);
+        try (PendingPaymentIndex index = new PendingPaymentIndex(10, "")) {
+            assertTrue(index.put("12345", 1L, new BigDecimal("100.0"), timestamp));
+
+            PendingPayment payment = index.find("12345").orElseThrow();
+            assertEquals(1L, payment.id());
+            assertEquals(10000, payment.amountMinor());
+            assertEquals(0, new BigDecimal("100.0").compareTo(payment.amount()));
+            assertEquals(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli(), payment.timestampEpochMillis());
+            assertTrue(index.find("67890").isEmpty());
+        }
+    }
+
+    @Test
+    void testRemove() throws Exception {
+        try (PendingPaymentIndex index = new PendingPaymentIndex(10, "")) {
+            index.put("12345", 1L, new BigDecimal("100.0"), null);
+
+            assertTrue(index.remove("12345"));
+            assertTrue(index.find("12345").isEmpty());
+            assertEquals(0, index.size());
+            assertFalse(index.remove("12345"));
+        }
+    }
+
+    @Test
+    void testRemovedSlotsAreReused() throws Exception {
+        int capacity = 1000;
+        try (PendingPaymentIndex index = new PendingPaymentIndex(capacity, "")) {
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < capacity; i++) {
+                    assertTrue(index.put(round + "-" + i, i, BigDecimal.ONE, null));
+                }
+                assertFalse(index.put(round + "-extra", -1L, BigDecimal.ONE, null));
+
+                for (int i = 0; i < capacity; i++) {
+                    assertTrue(index.remove(round + "-" + i));
+                }
+                assertEquals(0, index.size());
+            }
+        }
+    }
+
+    @Test
+    void testRemoveKeepsCollidingEntriesReachable() throws Exception {
+        int capacity = 1000;
+        try (PendingPaymentIndex index = new PendingPaymentIndex(capacity, "")) {
+            for (int i = 0; i < capacity; i++) {
+                index.put("id-" + i, i, BigDecimal.ONE, null);
+            }
+
+            for (int i = 0; i < capacity; i += 2) {
+                assertTrue(index.remove("id-" + i));
+            }
+
+            assertEquals(capacity / 2, index.size());
+            for (int i = 0; i < capacity; i++) {
+                assertEquals(i % 2 == 1, index.find("id-" + i).isPresent(), "id-" + i);
+            }
+            for (int i = 1; i < capacity; i += 2) {
+                assertEquals(i, index.find("id-" + i).orElseThrow().id());
+            }
+        }
+    }
+
+    @Test
+    void testRejectsWhenFullOrNotRepresentable() throws Exception {
+        try (PendingPaymentIndex index = new PendingPaymentIndex(2, "")) {
+            assertFalse(index.put("fraction", 1L, new BigDecimal("1.001"), null));
+            assertTrue(index.put("a", 1L, BigDecimal.ONE, null));
+            assertTrue(index.put("b", 2L, BigDecimal.ONE, null));
+            assertFalse(index.put("c", 3L, BigDecimal.ONE, null));
+            assertTrue(index.put("a", 4L, BigDecimal.TEN, null));
+            assertEquals(2, index.size());
+            assertEquals(4L, index.find("a").orElseThrow().id());
+        }
+    }
+
+    @Test
+    void testFileBackedIndexSurvivesReopen(@TempDir Path directory) throws Exception {
+        String file = directory.resolve("pending.idx").toString();
+        try (PendingPaymentIndex index = new PendingPaymentIndex(100, file)) {
+            index.put("12345", 1L, new BigDecimal("9.99"), null);
+        }
+
+        try (PendingPaymentIndex index = new PendingPaymentIndex(100, file)) {
+            assertEquals(1, index.size());
+            assertEquals(999, index.find("12345").orElseThrow().amountMinor());
+        }
+
+        assertThrows(IllegalStateException.class, () -> new PendingPaymentIndex(10_000, file));
+    }
+}
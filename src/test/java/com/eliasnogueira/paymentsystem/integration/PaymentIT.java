@@ -25,6 +25,7 @@ package com.eliasnogueira.paymentsystem.integration;
 
 import com.eliasnogueira.paymentsystem.model.Payment;
 import com.eliasnogueira.paymentsystem.repository.PaymentRepository;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -32,7 +33,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -75,4 +78,25 @@ class PaymentIT {
                 .andExpect(jsonPath("$.paid").value(true))
                 .andExpect(jsonPath("$.creditCardNumber").value("1234567890123456"));
     }
+
+    @Test
+    void testProcessPaymentAsCbor() throws Exception {
+        Payment payment = new Payment();
+        payment.setUniqueId("67890");
+        payment.setAmount(new BigDecimal("50.0"));
+        paymentRepository.save(payment);
+
+        byte[] body = mockMvc.perform(post("/payments/process/67890")
+                        .accept("application/cbor")
+                        .param("creditCardNumber", "1234567890123456")
+                        .param("amount", "50.0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Map<?, ?> decoded = new CBORMapper().readValue(body, Map.class);
+        assertEquals("SUCCESS", decoded.get("status"));
+        assertEquals(true, decoded.get("paid"));
+        assertEquals("67890", decoded.get("uniqueId"));
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.integration;
+
+import com.eliasnogueira.paymentsystem.Main;
+import com.eliasnogueira.paymentsystem.lease.PaymentLease;
+import com.eliasnogueira.paymentsystem.lease.PaymentLeaseManager;
+import com.eliasnogueira.paymentsystem.model.Payment;
+import com.eliasnogueira.paymentsystem.model.PaymentResponse;
+import com.eliasnogueira.paymentsystem.repository.PaymentRepository;
+import com.eliasnogueira.paymentsystem.service.PaymentService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two application contexts against the same file-based H2 database to simulate two nodes.
+ */
+class PaymentLeaseIT {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        String url = "jdbc:h2:file:./target/lease-it/" + UUID.randomUUID() + ";AUTO_SERVER=TRUE";
+        nodeA = startNode(url);
+        nodeB = startNode(url);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(String url) {
+        return new SpringApplicationBuilder(Main.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--payment.lease.type=database",
+                        "--payment.lease.wait-timeout=200ms");
+    }
+
+    @Test
+    void testLeaseIsExclusiveAcrossNodes() {
+        PaymentLeaseManager leasesA = nodeA.getBean(PaymentLeaseManager.class);
+        PaymentLeaseManager leasesB = nodeB.getBean(PaymentLeaseManager.class);
+
+        PaymentLease lease = leasesA.tryAcquire("lease-exclusive").orElseThrow();
+        assertTrue(lease.isHeld());
+        assertTrue(leasesB.tryAcquire("lease-exclusive").isEmpty());
+        lease.close();
+        assertFalse(lease.isHeld());
+
+        Optional<PaymentLease> takenOver = leasesB.tryAcquire("lease-exclusive");
+        assertTrue(takenOver.isPresent());
+        assertTrue(takenOver.get().fencingToken() > lease.fencingToken());
+        takenOver.get().close();
+    }
+
+    @Test
+    void testRaceToCreateNewLeaseHasOneWinner() throws Exception {
+        PaymentLeaseManager leasesA = nodeA.getBean(PaymentLeaseManager.class);
+        PaymentLeaseManager leasesB = nodeB.getBean(PaymentLeaseManager.class);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Optional<PaymentLease>> fromA = executor.submit(acquire(leasesA, "lease-race", start));
+            Future<Optional<PaymentLease>> fromB = executor.submit(acquire(leasesB, "lease-race", start));
+            start.countDown();
+
+            List<PaymentLease> holders = Stream.of(fromA.get(), fromB.get())
+                    .flatMap(Optional::stream)
+                    .toList();
+            assertEquals(1, holders.size());
+            assertTrue(holders.getFirst().isHeld());
+            holders.getFirst().close();
+        }
+    }
+
+    private static Callable<Optional<PaymentLease>> acquire(PaymentLeaseManager leases, String key, CountDownLatch start) {
+        return () -> {
+            start.await();
+            return leases.tryAcquire(key);
+        };
+    }
+
+    @Test
+    void testConcurrentProcessingOnTwoNodesPaysOnce() throws Exception {
+        Payment payment = new Payment();
+        payment.setUniqueId("lease-payment");
+        payment.setAmount(new BigDecimal("100.0"));
+        nodeA.getBean(PaymentRepository.class).save(payment);
+
+        PaymentService serviceA = nodeA.getBean(PaymentService.class);
+        PaymentService serviceB = nodeB.getBean(PaymentService.class);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            List<Future<PaymentResponse>> responses = List.of(
+                    executor.submit(process(serviceA, start)),
+                    executor.submit(process(serviceB, start)));
+            start.countDown();
+
+            long successes = 0;
+            for (Future<PaymentResponse> response : responses) {
+                if ("SUCCESS".equals(response.get().status())) {
+                    successes++;
+                }
+            }
+            assertEquals(1, successes);
+        }
+    }
+
+    private static Callable<PaymentResponse> process(PaymentService service, CountDownLatch start) {
+        return () -> {
+            start.await();
+            return service.processPayment("lease-payment", "1234567890123456", new BigDecimal("100.0"));
+        };
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class TracingIT {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @TempDir
+    static Path spanDirectory;
+
+    private static void register(DynamicPropertyRegistry registry, String file, double sampleRatio) {
+        registry.add("payment.tracing.enabled", () -> "true");
+        registry.add("payment.tracing.sample-ratio", () -> sampleRatio);
+        registry.add("payment.tracing.slow-threshold", () -> "1m");
+        registry.add("payment.tracing.file", () -> spanDirectory.resolve(file).toString());
+    }
+
+    private static void createPaymentRequest(MockMvc mockMvc, String uniqueId) throws Exception {
+        mockMvc.perform(post("/payments/request")
+                        .contentType("application/json")
+                        .content("{\"uniqueId\": \"" + uniqueId + "\", \"amount\": \"100.0\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private static void processPayment(MockMvc mockMvc, String uniqueId, String creditCardNumber) throws Exception {
+        mockMvc.perform(post("/payments/process/" + uniqueId)
+                        .param("creditCardNumber", creditCardNumber)
+                        .param("amount", "100.0"))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Flushes pending exports and returns the spans of the trace whose server span served the path.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> traceOf(OpenTelemetry openTelemetry, String file, String path)
+            throws Exception {
+        ((OpenTelemetrySdk) openTelemetry).getSdkTracerProvider().forceFlush().join(10, TimeUnit.SECONDS);
+
+        List<Map<String, Object>> spans = Files.readAllLines(spanDirectory.resolve(file)).stream()
+                .map(line -> {
+                    try {
+                        return (Map<String, Object>) OBJECT_MAPPER.readValue(line, Map.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        return spans.stream()
+                .filter(span -> "SERVER".equals(span.get("kind"))
+                        && path.equals(((Map<String, Object>) span.get("attributes")).get("url.path")))
+                .findFirst()
+                .map(server -> spans.stream().filter(span -> server.get("traceId").equals(span.get("traceId"))).toList())
+                .orElse(List.of());
+    }
+
+    private static List<Object> names(List<Map<String, Object>> trace) {
+        return trace.stream().map(span -> span.get("name")).toList();
+    }
+
+    @Nested
+    @SpringBootTest
+    @AutoConfigureMockMvc
+    class Sampled {
+
+        private static final String FILE = "sampled.jsonl";
+
+        @DynamicPropertySource
+        static void tracingProperties(DynamicPropertyRegistry registry) {
+            register(registry, FILE, 1);
+        }
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private OpenTelemetry openTelemetry;
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void testTraceCoversRequestServiceAndDatabase() throws Exception {
+            createPaymentRequest(mockMvc, "traced-1");
+            processPayment(mockMvc, "traced-1", "1234567890123456");
+
+            List<Map<String, Object>> process = traceOf(openTelemetry, FILE, "/payments/process/traced-1");
+            assertTrue(names(process).contains("POST /payments/process/{uniqueId}"), names(process)::toString);
+            assertTrue(names(process).containsAll(List.of(
+                    "PaymentService.processPayment", "PaymentService.validate", "PaymentLease.isHeld",
+                    "PaymentRepository.findByUniqueId", "PaymentRepository.markPaid")), names(process)::toString);
+            assertTrue(process.stream().anyMatch(span -> "CLIENT".equals(span.get("kind"))),
+                    "no JDBC span in " + names(process));
+
+            List<Map<String, Object>> create = traceOf(openTelemetry, FILE, "/payments/request");
+            Map<String, Object> server = create.stream()
+                    .filter(span -> "SERVER".equals(span.get("kind")))
+                    .findFirst().orElseThrow();
+            assertEquals("POST /payments/request", server.get("name"));
+            assertEquals(List.of("request.body.read", "request.body.bound"),
+                    ((List<Map<String, Object>>) server.get("events")).stream().map(event -> event.get("name")).toList());
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @AutoConfigureMockMvc
+    class Unsampled {
+
+        private static final String FILE = "unsampled.jsonl";
+
+        @DynamicPropertySource
+        static void tracingProperties(DynamicPropertyRegistry registry) {
+            register(registry, FILE, 0);
+        }
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private OpenTelemetry openTelemetry;
+
+        @Test
+        void testExportsOnlyFailedPayments() throws Exception {
+            createPaymentRequest(mockMvc, "untraced-ok");
+            createPaymentRequest(mockMvc, "untraced-failed");
+            processPayment(mockMvc, "untraced-ok", "1234567890123456");
+            processPayment(mockMvc, "untraced-failed", "1234");
+
+            List<Map<String, Object>> failed = traceOf(openTelemetry, FILE, "/payments/process/untraced-failed");
+            assertTrue(failed.stream().anyMatch(span -> "PaymentService.processPayment".equals(span.get("name"))
+                    && "ERROR".equals(span.get("status"))), names(failed)::toString);
+            assertTrue(traceOf(openTelemetry, FILE, "/payments/process/untraced-ok").isEmpty());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.lease;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLockLeaseManagerTest {
+
+    private final StripedLockLeaseManager leaseManager = new StripedLockLeaseManager(16, true, Duration.ofMillis(50));
+
+    @Test
+    void testLeaseIsExclusiveAcrossThreads() throws Exception {
+        Optional<PaymentLease> first = leaseManager.tryAcquire("12345");
+        assertTrue(first.isPresent());
+        assertTrue(first.get().isHeld());
+
+        Optional<PaymentLease> contended = CompletableFuture.supplyAsync(() -> leaseManager.tryAcquire("12345")).get();
+        assertTrue(contended.isEmpty());
+
+        first.get().close();
+        assertFalse(first.get().isHeld());
+
+        Optional<PaymentLease> second = CompletableFuture.supplyAsync(() -> {
+            Optional<PaymentLease> lease = leaseManager.tryAcquire("12345");
+            lease.ifPresent(PaymentLease::close);
+            return lease;
+        }).get();
+        assertTrue(second.isPresent());
+        assertTrue(second.get().fencingToken() > first.get().fencingToken());
+    }
+
+    @Test
+    void testCloseIsIdempotent() {
+        PaymentLease lease = leaseManager.tryAcquire("12345").orElseThrow();
+        lease.close();
+        assertDoesNotThrow(lease::close);
+    }
+
+    @Test
+    void testRejectsNonPositiveStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedLockLeaseManager(0, false, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.tools.attach.VirtualMachine;
+import org.HdrHistogram.Recorder;
+
+import javax.management.MBeanServerConnection;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records GC pauses from the JVM notifications and samples heap usage of the application JVM, attached to through
+ * its local management agent, to spot memory growth on long runs. Concurrent collector cycles are not pauses and are
+ * left out.
+ */
+class JvmSampler implements AutoCloseable {
+
+    record HeapSample(long elapsedMillis, long usedBytes, long usedAfterGcBytes) {
+    }
+
+    private final Recorder gcPauses = new Recorder(3);
+    private final List<HeapSample> samples = new ArrayList<>();
+    private final JMXConnector connector;
+    private final MBeanServerConnection connection;
+    private final List<MemoryPoolMXBean> memoryPools;
+    private final List<ObjectName> collectors = new ArrayList<>();
+    private final NotificationListener listener = (notification, handback) -> {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (isPause(info)) {
+            gcPauses.recordValue(Math.max(info.getGcInfo().getDuration(), 0));
+        }
+    };
+    private final long startNanos = System.nanoTime();
+
+    private JvmSampler(JMXConnector connector) throws Exception {
+        this.connector = connector;
+        this.connection = connector.getMBeanServerConnection();
+        this.memoryPools = ManagementFactory.getPlatformMXBeans(connection, MemoryPoolMXBean.class);
+        for (GarbageCollectorMXBean collector : ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean.class)) {
+            connection.addNotificationListener(collector.getObjectName(), listener, null, null);
+            collectors.add(collector.getObjectName());
+        }
+    }
+
+    static JvmSampler attach(long pid) throws Exception {
+        VirtualMachine vm = VirtualMachine.attach(Long.toString(pid));
+        String address;
+        try {
+            address = vm.startLocalManagementAgent();
+        } finally {
+            vm.detach();
+        }
+        return new JvmSampler(JMXConnectorFactory.connect(new JMXServiceURL(address)));
+    }
+
+    private static boolean isPause(GarbageCollectionNotificationInfo info) {
+        return !info.getGcName().contains("Cycles") && !info.getGcAction().contains("concurrent");
+    }
+
+    synchronized HeapSample sample() {
+        long used = 0;
+        long usedAfterGc = 0;
+        for (MemoryPoolMXBean pool : memoryPools) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            used += pool.getUsage().getUsed();
+            if (pool.getCollectionUsage() != null) {
+                usedAfterGc += pool.getCollectionUsage().getUsed();
+            }
+        }
+        HeapSample sample = new HeapSample((System.nanoTime() - startNanos) / 1_000_000, used, usedAfterGc);
+        samples.add(sample);
+        return sample;
+    }
+
+    synchronized List<HeapSample> samples() {
+        return List.copyOf(samples);
+    }
+
+    /**
+     * Pause durations in milliseconds.
+     */
+    Recorder gcPauses() {
+        return gcPauses;
+    }
+
+    /**
+     * Least-squares slope of the heap left after GC, in bytes per hour, ignoring the first fifth of the run as warm-up.
+     */
+    synchronized double heapGrowthBytesPerHour() {
+        List<HeapSample> steady = samples.subList(samples.size() / 5, samples.size());
+        if (steady.size() < 2) {
+            return 0;
+        }
+        double meanX = steady.stream().mapToLong(HeapSample::elapsedMillis).average().orElse(0);
+        double meanY = steady.stream().mapToLong(HeapSample::usedAfterGcBytes).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (HeapSample sample : steady) {
+            double dx = sample.elapsedMillis() - meanX;
+            covariance += dx * (sample.usedAfterGcBytes() - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0 : covariance / variance * 3_600_000;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            for (ObjectName collector : collectors) {
+                connection.removeNotificationListener(collector, listener);
+            }
+        } finally {
+            connector.close();
+        }
+    }
+}
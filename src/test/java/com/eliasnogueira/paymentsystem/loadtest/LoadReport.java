@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a load run. Latencies are recorded in microseconds from the intended start of each call, so time
+ * spent queued behind a slow application counts against it; GC pauses of the application JVM are recorded in
+ * milliseconds, and are absent when it could not be attached to.
+ */
+record LoadReport(
+        LoadSettings settings,
+        Duration elapsed,
+        long arrivals,
+        long dropped,
+        long completedFlows,
+        Histogram createLatency,
+        Histogram processLatency,
+        Histogram hotKeyLatency,
+        boolean jvmSampled,
+        Histogram gcPauses,
+        Map<String, Long> outcomes,
+        List<JvmSampler.HeapSample> heapSamples,
+        double heapGrowthBytesPerHour) {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    boolean heapGrowthExceeded() {
+        return settings.soak() && heapGrowthBytesPerHour > settings.maxHeapGrowthBytesPerHour();
+    }
+
+    void print(PrintStream out) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        out.println("=== Payment load test ===");
+        out.printf("target rate        %.1f flows/s for %s%n", settings.rate(), settings.duration());
+        out.printf("elapsed            %.1f s%n", seconds);
+        out.printf("arrivals           %d (dropped %d over max in flight)%n", arrivals, dropped);
+        out.printf("completed flows    %d (%.1f flows/s)%n", completedFlows, completedFlows / seconds);
+        printLatency(out, "create latency", createLatency);
+        printLatency(out, "process latency", processLatency);
+        printLatency(out, "hot key latency", hotKeyLatency);
+        out.println("outcomes");
+        outcomes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> out.printf("  %-60s %d%n", entry.getKey(), entry.getValue()));
+
+        if (!jvmSampled) {
+            out.println("application JVM    not sampled, set load.appPid to include GC and heap figures");
+            return;
+        }
+        out.printf("gc pauses          count=%d total=%d ms max=%d ms p99=%d ms%n",
+                gcPauses.getTotalCount(), totalPauseMillis(), gcPauses.getMaxValue(),
+                gcPauses.getValueAtPercentile(99));
+
+        if (!heapSamples.isEmpty()) {
+            JvmSampler.HeapSample last = heapSamples.getLast();
+            out.printf("heap               used=%.1f MB after-gc=%.1f MB%n",
+                    last.usedBytes() / BYTES_PER_MB, last.usedAfterGcBytes() / BYTES_PER_MB);
+        }
+        out.printf("heap growth        %.1f MB/h%s%n", heapGrowthBytesPerHour / BYTES_PER_MB,
+                heapGrowthExceeded() ? "  <-- exceeds soak limit, possible leak" : "");
+    }
+
+    void write() throws IOException {
+        Path report = settings.report();
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(report), false, StandardCharsets.UTF_8)) {
+            print(out);
+            out.println();
+            out.println("=== create latency distribution (ms) ===");
+            createLatency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            out.println();
+            out.println("=== process latency distribution (ms) ===");
+            processLatency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            out.println();
+            out.println("=== hot key latency distribution (ms) ===");
+            hotKeyLatency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            out.println();
+            out.println("=== heap samples (elapsed ms, used bytes, used after gc bytes) ===");
+            heapSamples.forEach(sample -> out.printf("%d,%d,%d%n",
+                    sample.elapsedMillis(), sample.usedBytes(), sample.usedAfterGcBytes()));
+        }
+    }
+
+    private long totalPauseMillis() {
+        long total = 0;
+        for (var value : gcPauses.recordedValues()) {
+            total += value.getValueIteratedTo() * value.getCountAddedInThisIterationStep();
+        }
+        return total;
+    }
+
+    private static void printLatency(PrintStream out, String label, Histogram histogram) {
+        out.printf("%-18s count=%d p50=%.2f ms p90=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms%n", label,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Workload definition read from {@code load.*} system properties, e.g. {@code -Dload.rate=200 -Dload.duration=5m}.
+ *
+ * @param baseUrl URL of an already running application; when empty the application is forked in its own JVM
+ * @param appPid process id of the already running application, attached to for GC and heap figures
+ * @param appJvmArgs JVM options of the forked application, e.g. {@code -Xmx512m -XX:+UseZGC}
+ * @param appArgs Spring arguments of the forked application, e.g. {@code --payment.lease.type=database}
+ * @param datasourceUrl database of the forked application; soak runs default to a fresh file-based H2 database so
+ *                      stored payments do not show up as heap growth
+ * @param rate payment flows started per second, independent of how fast responses come back
+ * @param duration how long new flows keep arriving
+ * @param createToPayDelay pause between creating a payment request and paying it
+ * @param hotKeyRatio share of payments sent to a small set of shared unique IDs
+ * @param hotKeys size of the shared unique ID set
+ * @param wrongAmountRatio share of payments sent with an amount that does not match the request
+ * @param badCardRatio share of payments sent with an invalid credit card number
+ * @param maxInFlight flows allowed in flight before new arrivals are dropped and counted
+ * @param sampleInterval interval between progress lines and JVM samples
+ * @param soak whether the heap growth check fails the run
+ * @param maxHeapGrowthBytesPerHour heap-after-GC growth tolerated in soak mode
+ * @param report file receiving the final report
+ */
+record LoadSettings(
+        String baseUrl,
+        long appPid,
+        String appJvmArgs,
+        String appArgs,
+        String datasourceUrl,
+        double rate,
+        Duration duration,
+        Duration createToPayDelay,
+        double hotKeyRatio,
+        int hotKeys,
+        double wrongAmountRatio,
+        double badCardRatio,
+        int maxInFlight,
+        Duration sampleInterval,
+        boolean soak,
+        long maxHeapGrowthBytesPerHour,
+        Path report) {
+
+    LoadSettings {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("load.rate must be positive");
+        }
+        if (hotKeyRatio > 0 && hotKeys <= 0) {
+            throw new IllegalArgumentException("load.hotKeys must be positive when load.hotKeyRatio is set");
+        }
+        if (soak && !baseUrl.isBlank() && appPid <= 0) {
+            throw new IllegalArgumentException("load.soak needs the application JVM: set load.appPid with load.baseUrl");
+        }
+    }
+
+    static LoadSettings fromSystemProperties() {
+        boolean soak = Boolean.parseBoolean(System.getProperty("load.soak", "false"));
+        String soakDatasourceUrl = "jdbc:h2:file:./target/load-test/paymentdb-" + System.currentTimeMillis();
+        return new LoadSettings(
+                System.getProperty("load.baseUrl", ""),
+                Long.parseLong(System.getProperty("load.appPid", "0")),
+                System.getProperty("load.appJvmArgs", ""),
+                System.getProperty("load.appArgs", ""),
+                System.getProperty("load.datasourceUrl", soak ? soakDatasourceUrl : ""),
+                Double.parseDouble(System.getProperty("load.rate", "50")),
+                duration(System.getProperty("load.duration", "60s")),
+                duration(System.getProperty("load.createToPayDelay", "100ms")),
+                Double.parseDouble(System.getProperty("load.hotKeyRatio", "0.1")),
+                Integer.parseInt(System.getProperty("load.hotKeys", "10")),
+                Double.parseDouble(System.getProperty("load.wrongAmountRatio", "0.05")),
+                Double.parseDouble(System.getProperty("load.badCardRatio", "0.05")),
+                Integer.parseInt(System.getProperty("load.maxInFlight", "10000")),
+                duration(System.getProperty("load.sampleInterval", "10s")),
+                soak,
+                Long.parseLong(System.getProperty("load.soak.maxHeapGrowthMbPerHour", "64")) * 1024 * 1024,
+                Path.of(System.getProperty("load.report", "target/load-test/report.txt")));
+    }
+
+    /**
+     * Parses either an ISO-8601 duration or a number followed by {@code ms}, {@code s}, {@code m} or {@code h}.
+     */
+    static Duration duration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.startsWith("p")) {
+            return Duration.parse(text.toUpperCase(Locale.ROOT));
+        }
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+}
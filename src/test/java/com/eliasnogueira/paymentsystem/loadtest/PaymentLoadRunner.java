@@ -0,0 +1,316 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the payment API: flows arrive at a fixed rate whether or not earlier ones finished,
+ * each creating a payment request and paying it after a delay, or paying one of the shared hot keys straight away.
+ * <p>
+ * Run with {@code mvn -Pload-test verify -DskipTests -Dload.args="-Dload.rate=200 -Dload.duration=5m"}; see
+ * {@link LoadSettings} for the other knobs. Without {@code load.baseUrl} the application is forked in its own JVM;
+ * GC and heap figures come from the application JVM, attached to by process id, never from the generator.
+ */
+public class PaymentLoadRunner {
+
+    private static final String VALID_CARD = "1234567890123456";
+    private static final String INVALID_CARD = "1234";
+    private static final BigDecimal HOT_KEY_AMOUNT = new BigDecimal("10.00");
+
+    private final LoadSettings settings;
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completedFlows = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final Recorder createLatency = new Recorder(3);
+    private final Recorder processLatency = new Recorder(3);
+    private final Recorder hotKeyLatency = new Recorder(3);
+
+    PaymentLoadRunner(LoadSettings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        LoadReport report;
+        if (settings.baseUrl().isBlank()) {
+            try (AppProcess app = AppProcess.start(settings);
+                 JvmSampler jvm = JvmSampler.attach(app.pid())) {
+                report = new PaymentLoadRunner(settings, app.baseUrl()).run(jvm);
+            }
+        } else if (settings.appPid() > 0) {
+            try (JvmSampler jvm = JvmSampler.attach(settings.appPid())) {
+                report = new PaymentLoadRunner(settings, settings.baseUrl()).run(jvm);
+            }
+        } else {
+            report = new PaymentLoadRunner(settings, settings.baseUrl()).run(null);
+        }
+
+        report.print(System.out);
+        report.write();
+        System.out.println("Report written to " + settings.report().toAbsolutePath());
+        if (report.heapGrowthExceeded()) {
+            throw new IllegalStateException("Heap after GC grew faster than the soak limit");
+        }
+    }
+
+    /**
+     * Runs the workload; {@code jvm} is {@code null} when the application JVM is not reachable, in which case the
+     * report has no GC or heap figures.
+     */
+    LoadReport run(JvmSampler jvm) throws Exception {
+        createHotKeys();
+
+        Histogram createTotal = new Histogram(3);
+        Histogram processTotal = new Histogram(3);
+        Histogram hotKeyTotal = new Histogram(3);
+        Histogram gcTotal = new Histogram(3);
+        long sampleNanos = settings.sampleInterval().toNanos();
+        long arrivals = 0;
+        long dropped = 0;
+
+        long start = System.nanoTime();
+        long end = start + settings.duration().toNanos();
+
+        // sampling attaches to the application JVM and prints, so it runs off the thread that paces arrivals
+        try (ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(PaymentLoadRunner::daemon);
+             ExecutorService flows = Executors.newVirtualThreadPerTaskExecutor()) {
+            sampler.scheduleAtFixedRate(() -> sample(jvm, start, createTotal, processTotal, hotKeyTotal, gcTotal),
+                    sampleNanos, sampleNanos, TimeUnit.NANOSECONDS);
+            while (true) {
+                long intendedStart = start + (long) (arrivals * 1_000_000_000L / settings.rate());
+                if (intendedStart >= end) {
+                    break;
+                }
+                parkUntil(intendedStart);
+                arrivals++;
+
+                if (inFlight.incrementAndGet() > settings.maxInFlight()) {
+                    inFlight.decrementAndGet();
+                    dropped++;
+                    continue;
+                }
+                flows.execute(() -> {
+                    try {
+                        runFlow(intendedStart);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+
+        sample(jvm, start, createTotal, processTotal, hotKeyTotal, gcTotal);
+        Map<String, Long> outcomeCounts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> outcomeCounts.put(outcome, count.sum()));
+
+        return new LoadReport(settings, Duration.ofNanos(System.nanoTime() - start), arrivals, dropped,
+                completedFlows.sum(), createTotal, processTotal, hotKeyTotal, jvm != null, gcTotal, outcomeCounts,
+                jvm != null ? jvm.samples() : List.of(), jvm != null ? jvm.heapGrowthBytesPerHour() : 0);
+    }
+
+    private void createHotKeys() throws IOException, InterruptedException {
+        for (int i = 0; i < settings.hotKeys(); i++) {
+            HttpResponse<String> response = client.send(createRequest(hotKey(i), HOT_KEY_AMOUNT),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not create hot key " + hotKey(i) + ": " + response.body());
+            }
+        }
+    }
+
+    private void runFlow(long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < settings.hotKeyRatio()) {
+            // paying a shared key contends on its lease; nothing is created, so no request is left unpaid
+            pay(hotKey(random.nextInt(settings.hotKeys())), HOT_KEY_AMOUNT, hotKeyLatency, intendedStart);
+            return;
+        }
+
+        String uniqueId = runId + "-" + sequence.incrementAndGet();
+        BigDecimal amount = BigDecimal.valueOf(random.nextInt(100, 100_000), 2);
+
+        HttpResponse<String> created = send(createRequest(uniqueId, amount), createLatency, intendedStart);
+        if (created == null) {
+            return;
+        }
+        if (created.statusCode() != 200) {
+            count("create HTTP " + created.statusCode());
+            return;
+        }
+
+        long intendedPay = System.nanoTime() + settings.createToPayDelay().toNanos();
+        parkUntil(intendedPay);
+
+        pay(uniqueId, amount, processLatency, intendedPay);
+    }
+
+    private void pay(String uniqueId, BigDecimal amount, Recorder latency, long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BigDecimal payAmount = random.nextDouble() < settings.wrongAmountRatio() ? amount.add(BigDecimal.ONE) : amount;
+        String card = random.nextDouble() < settings.badCardRatio() ? INVALID_CARD : VALID_CARD;
+
+        HttpResponse<String> processed = send(processRequest(uniqueId, card, payAmount), latency, intendedStart);
+        if (processed != null) {
+            count(outcomeOf(processed));
+        }
+        completedFlows.increment();
+    }
+
+    private HttpResponse<String> send(HttpRequest request, Recorder latency, long intendedStart) {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latency.recordValue(Math.max((System.nanoTime() - intendedStart) / 1000, 0));
+            return response;
+        } catch (IOException e) {
+            count("error " + e.getClass().getSimpleName());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count("interrupted");
+            return null;
+        }
+    }
+
+    private String outcomeOf(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return "process HTTP " + response.statusCode();
+        }
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            return body.path("status").asText() + ": " + body.path("message").asText();
+        } catch (IOException e) {
+            return "unreadable response";
+        }
+    }
+
+    private HttpRequest createRequest(String uniqueId, BigDecimal amount) {
+        String body = "{\"uniqueId\":\"" + uniqueId + "\",\"amount\":" + amount.toPlainString() + "}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/payments/request"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest processRequest(String uniqueId, String creditCardNumber, BigDecimal amount) {
+        URI uri = URI.create(baseUrl + "/payments/process/" + uniqueId
+                + "?creditCardNumber=" + creditCardNumber + "&amount=" + amount.toPlainString());
+        return HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private String hotKey(int index) {
+        return runId + "-hot-" + index;
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private void sample(JvmSampler jvm, long start, Histogram createTotal, Histogram processTotal,
+                        Histogram hotKeyTotal, Histogram gcTotal) {
+        try {
+            printSample(jvm, start, createTotal, processTotal, hotKeyTotal, gcTotal);
+        } catch (RuntimeException e) {
+            // a periodic task that throws is never run again, so report it and keep sampling
+            System.err.println("Sampling failed: " + e);
+        }
+    }
+
+    private void printSample(JvmSampler jvm, long start, Histogram createTotal, Histogram processTotal,
+                             Histogram hotKeyTotal, Histogram gcTotal) {
+        Histogram create = createLatency.getIntervalHistogram();
+        Histogram process = processLatency.getIntervalHistogram();
+        Histogram hot = hotKeyLatency.getIntervalHistogram();
+        createTotal.add(create);
+        processTotal.add(process);
+        hotKeyTotal.add(hot);
+
+        double intervalSeconds = settings.sampleInterval().toMillis() / 1000.0;
+        System.out.printf("[%6ds] process %.1f/s p99=%.2f ms | hot key %.1f/s p99=%.2f ms | create p99=%.2f ms"
+                        + " | in flight %d",
+                (System.nanoTime() - start) / 1_000_000_000L,
+                process.getTotalCount() / intervalSeconds,
+                process.getValueAtPercentile(99) / 1000.0,
+                hot.getTotalCount() / intervalSeconds,
+                hot.getValueAtPercentile(99) / 1000.0,
+                create.getValueAtPercentile(99) / 1000.0,
+                inFlight.get());
+        if (jvm != null) {
+            Histogram gc = jvm.gcPauses().getIntervalHistogram();
+            gcTotal.add(gc);
+            JvmSampler.HeapSample heap = jvm.sample();
+            System.out.printf(" | gc pauses %d max %d ms | heap %d MB after-gc %d MB",
+                    gc.getTotalCount(), gc.getMaxValue(), heap.usedBytes() >> 20, heap.usedAfterGcBytes() >> 20);
+        }
+        System.out.println();
+    }
+
+    private static Thread daemon(Runnable task) {
+        Thread thread = new Thread(task, "load-sampler");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentResponseSerializerTest {
+
+    @Test
+    void testSerializeSuccessAsJson() throws Exception {
+        PaymentResponse response = new PaymentResponse(PaymentResponse.STATUS_SUCCESS, PaymentResponse.MESSAGE_PROCESSED,
+                new BigDecimal("100.0"), "12345", true, "1234567890123456");
+
+        String json = new ObjectMapper().writeValueAsString(response);
+        assertEquals("{\"status\":\"SUCCESS\",\"message\":\"Payment processed successfully\",\"amount\":100.0,"
+                + "\"uniqueId\":\"12345\",\"paid\":true,\"creditCardNumber\":\"1234567890123456\"}", json);
+    }
+
+    @Test
+    void testSerializeFailureWithNullsAsJson() throws Exception {
+        PaymentResponse response = new PaymentResponse(PaymentResponse.STATUS_FAILED, "Custom message", null, "12345");
+
+        String json = new ObjectMapper().writeValueAsString(response);
+        assertEquals("{\"status\":\"FAILED\",\"message\":\"Custom message\",\"amount\":null,"
+                + "\"uniqueId\":\"12345\",\"paid\":false,\"creditCardNumber\":null}", json);
+    }
+
+    @Test
+    void testSerializeAsCbor() throws Exception {
+        PaymentResponse response = new PaymentResponse(PaymentResponse.STATUS_FAILED, PaymentResponse.MESSAGE_NOT_FOUND,
+                null, "12345");
+        CBORMapper mapper = new CBORMapper();
+
+        Map<?, ?> decoded = mapper.readValue(mapper.writeValueAsBytes(response), Map.class);
+        assertEquals("FAILED", decoded.get("status"));
+        assertEquals("Payment request not found", decoded.get("message"));
+        assertEquals("12345", decoded.get("uniqueId"));
+        assertEquals(false, decoded.get("paid"));
+    }
+}
@@ -23,18 +23,29 @@
  */
 package com.eliasnogueira.paymentsystem.service;
 
+import com.eliasnogueira.paymentsystem.index.PendingPayment;
+import com.eliasnogueira.paymentsystem.index.PendingPaymentIndex;
+import com.eliasnogueira.paymentsystem.lease.PaymentLeaseManager;
+import com.eliasnogueira.paymentsystem.lease.StripedLockLeaseManager;
 import com.eliasnogueira.paymentsystem.model.Payment;
 import com.eliasnogueira.paymentsystem.model.PaymentRequest;
 import com.eliasnogueira.paymentsystem.model.PaymentResponse;
 import com.eliasnogueira.paymentsystem.repository.PaymentRepository;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -45,20 +56,28 @@ class PaymentServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private PendingPaymentIndex pendingPaymentIndex;
+
+    @Spy
+    private PaymentLeaseManager paymentLeaseManager = new StripedLockLeaseManager(16, false, Duration.ofSeconds(1));
+
     @InjectMocks
     private PaymentService paymentService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentService, "tracer", OpenTelemetry.noop().getTracer("test"));
+    }
+
     @Test
     void testCreatePaymentRequest() {
-        PaymentRequest request = new PaymentRequest();
-        request.setUniqueId("12345");
-        request.setAmount(new BigDecimal("100.0"));
-        request.setTimestamp(LocalDateTime.now());
+        PaymentRequest request = new PaymentRequest("12345", new BigDecimal("100.0"), LocalDateTime.now());
 
         Payment payment = new Payment();
-        payment.setUniqueId(request.getUniqueId());
-        payment.setAmount(request.getAmount());
-        payment.setTimestamp(request.getTimestamp());
+        payment.setUniqueId(request.uniqueId());
+        payment.setAmount(request.amount());
+        payment.setTimestamp(request.timestamp());
 
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
 
@@ -70,15 +89,17 @@ class PaymentServiceTest {
     @Test
     void testProcessPayment_Success() {
         Payment payment = new Payment();
+        payment.setId(1L);
         payment.setUniqueId("12345");
         payment.setAmount(new BigDecimal("100.0"));
 
         when(paymentRepository.findByUniqueId("12345")).thenReturn(payment);
+        when(paymentRepository.markPaid(1L, "1234567890123456")).thenReturn(1);
 
         PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("100.0"));
-        assertEquals("SUCCESS", response.getStatus());
-        assertTrue(response.isPaid());
-        assertEquals("1234567890123456", response.getCreditCardNumber());
+        assertEquals("SUCCESS", response.status());
+        assertTrue(response.paid());
+        assertEquals("1234567890123456", response.creditCardNumber());
     }
 
     @Test
@@ -90,6 +111,82 @@ class PaymentServiceTest {
         when(paymentRepository.findByUniqueId("12345")).thenReturn(payment);
 
         PaymentResponse response = paymentService.processPayment("12345", "invalid", new BigDecimal("100.0"));
-        assertEquals("FAILED", response.getStatus());
+        assertEquals("FAILED", response.status());
+    }
+
+    @Test
+    void testProcessPayment_AlreadyPaid() {
+        Payment payment = new Payment();
+        payment.setUniqueId("12345");
+        payment.setAmount(new BigDecimal("100.0"));
+        payment.setPaid(true);
+
+        when(paymentRepository.findByUniqueId("12345")).thenReturn(payment);
+
+        PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("100.0"));
+        assertEquals("FAILED", response.status());
+        assertEquals(PaymentResponse.MESSAGE_ALREADY_PAID, response.message());
+        verify(paymentRepository, never()).markPaid(any(), any());
+    }
+
+    @Test
+    void testProcessPayment_PaidConcurrently() {
+        Payment payment = new Payment();
+        payment.setId(1L);
+        payment.setUniqueId("12345");
+        payment.setAmount(new BigDecimal("100.0"));
+
+        when(paymentRepository.findByUniqueId("12345")).thenReturn(payment);
+        when(paymentRepository.markPaid(1L, "1234567890123456")).thenReturn(0);
+
+        PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("100.0"));
+        assertEquals("FAILED", response.status());
+        assertEquals(PaymentResponse.MESSAGE_ALREADY_PAID, response.message());
+    }
+
+    @Test
+    void testProcessPayment_LeaseUnavailable() {
+        doReturn(Optional.empty()).when(paymentLeaseManager).tryAcquire("12345");
+
+        PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("100.0"));
+        assertEquals("FAILED", response.status());
+        assertEquals(PaymentResponse.MESSAGE_IN_PROGRESS, response.message());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void testProcessPayment_IndexedAmountMismatch() {
+        when(pendingPaymentIndex.find("12345"))
+                .thenReturn(Optional.of(new PendingPayment(1L, 10000, 0)));
+
+        PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("99.0"));
+        assertEquals("FAILED", response.status());
+        assertEquals(PaymentResponse.MESSAGE_AMOUNT_MISMATCH, response.message());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void testProcessPayment_IndexedPaysWithoutLoading() {
+        when(pendingPaymentIndex.find("12345"))
+                .thenReturn(Optional.of(new PendingPayment(1L, 10000, 0)));
+        when(paymentRepository.markPaid(1L, "1234567890123456")).thenReturn(1);
+
+        PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("100.0"));
+        assertEquals("SUCCESS", response.status());
+        verify(paymentRepository, never()).findById(any());
+        verify(paymentRepository, never()).findByUniqueId(any());
+        verify(pendingPaymentIndex).remove("12345");
+    }
+
+    @Test
+    void testProcessPayment_IndexedPaidElsewhere() {
+        when(pendingPaymentIndex.find("12345"))
+                .thenReturn(Optional.of(new PendingPayment(1L, 10000, 0)));
+        when(paymentRepository.markPaid(1L, "1234567890123456")).thenReturn(0);
+
+        PaymentResponse response = paymentService.processPayment("12345", "1234567890123456", new BigDecimal("100.0"));
+        assertEquals("FAILED", response.status());
+        assertEquals(PaymentResponse.MESSAGE_ALREADY_PAID, response.message());
+        verify(pendingPaymentIndex).remove("12345");
     }
 }
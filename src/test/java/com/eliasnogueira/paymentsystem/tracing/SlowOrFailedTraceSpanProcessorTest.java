@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Elias Nogueira
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.eliasnogueira.paymentsystem.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowOrFailedTraceSpanProcessorTest {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    private SlowOrFailedTraceSpanProcessor processor;
+
+    private Tracer tracer(Duration slowThreshold, double sampleRatio) {
+        return tracer(slowThreshold, sampleRatio, 100, Duration.ofMinutes(1), 100);
+    }
+
+    private Tracer tracer(Duration slowThreshold, double sampleRatio, int maxPendingTraces, Duration pendingTimeout,
+                          int maxKeptTracesPerSecond) {
+        processor = new SlowOrFailedTraceSpanProcessor(SimpleSpanProcessor.create(exporter), slowThreshold,
+                sampleRatio, maxPendingTraces, pendingTimeout, maxKeptTracesPerSecond);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(processor)
+                .build();
+        return tracerProvider.get("test");
+    }
+
+    private static void trace(Tracer tracer, boolean failChild) {
+        Span root = tracer.spanBuilder("root").startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span child = tracer.spanBuilder("child").startSpan();
+            if (failChild) {
+                child.setStatus(StatusCode.ERROR);
+            }
+            child.end();
+        } finally {
+            root.end();
+        }
+    }
+
+    @Test
+    void testDropsFastSuccessfulTraceWhenNotSampled() {
+        trace(tracer(Duration.ofMinutes(1), 0), false);
+        assertTrue(exporter.getFinishedSpanItems().isEmpty());
+    }
+
+    @Test
+    void testKeepsWholeTraceWhenChildFailed() {
+        trace(tracer(Duration.ofMinutes(1), 0), true);
+        assertEquals(2, exporter.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void testKeepsSlowTrace() {
+        trace(tracer(Duration.ZERO, 0), false);
+        assertEquals(2, exporter.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void testKeepsSampledTrace() {
+        trace(tracer(Duration.ofMinutes(1), 1), false);
+        assertEquals(2, exporter.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void testKeepsNoMoreTracesPerSecondThanTheLimit() {
+        Tracer tracer = tracer(Duration.ZERO, 1, 100, Duration.ofMinutes(1), 2);
+        for (int i = 0; i < 5; i++) {
+            trace(tracer, true);
+        }
+        assertEquals(4, exporter.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void testEvictsOrphanedTracesOnceTheyTimeOut() throws Exception {
+        Tracer tracer = tracer(Duration.ofMinutes(1), 0, 1, Duration.ofMillis(1), 100);
+
+        // a child ending after its root leaves a trace whose root will never end again
+        Span root = tracer.spanBuilder("root").startSpan();
+        Span late = tracer.spanBuilder("late").setParent(Context.root().with(root)).startSpan();
+        root.end();
+        late.end();
+        assertEquals(1, processor.pendingTraceCount());
+
+        Thread.sleep(5);
+        trace(tracer, true);
+        assertEquals(2, exporter.getFinishedSpanItems().size());
+        assertEquals(0, processor.pendingTraceCount());
+    }
+}